@@ -29,6 +29,7 @@ public class API
 {
     private static final String INVALID_TOKEN = "Token is required";
     private static final String INVALID_URL = "URL is required";
+    private static final String ABORTED = "Request aborted";
 
     private static final String OPTION_KEY_FORMAT = "format";
     private static final String OPTION_KEY_TOKEN = "token";
@@ -45,6 +46,8 @@ public class API
     private String originalStatus;
     private String crawlbaseStatus;
     private String url;
+    private volatile HttpURLConnection connection;
+    private volatile boolean aborted;
 
     /**
      * Accepts a Normal token or Javascript token
@@ -134,7 +137,7 @@ public class API
         }
         URL uri = prepareURI(url, options);
         try {
-            HttpURLConnection httpConn = (HttpURLConnection) uri.openConnection();
+            HttpURLConnection httpConn = openConnection(uri);
             httpConn.setRequestMethod(HTTP_METHOD_GET);
             this.statusCode = httpConn.getResponseCode();
             prepareResponse(httpConn, format);
@@ -168,6 +171,7 @@ public class API
         if (url == null || url.isEmpty() || url.trim().isEmpty()) {
             throw new RuntimeException(INVALID_URL);
         }
+        this.url = url;
         if (options == null) {
             options = new HashMap<String, Object>();
         }
@@ -180,7 +184,7 @@ public class API
         }
         URL uri = prepareURI(url, options);
         try {
-            HttpURLConnection httpConn = (HttpURLConnection) uri.openConnection();
+            HttpURLConnection httpConn = openConnection(uri);
             httpConn.setRequestMethod(HTTP_METHOD_POST);
             setupPostRequest(httpConn, data, format);
             this.statusCode = httpConn.getResponseCode();
@@ -204,6 +208,18 @@ public class API
         post(url, data, null);
     }
 
+    /**
+     * Aborts the request in progress from another thread, making it fail with a {@link RuntimeException RuntimeException}.
+     * Once aborted, any further request made with this instance fails as well.
+     */
+    public void abort() {
+        this.aborted = true;
+        HttpURLConnection httpConn = this.connection;
+        if (httpConn != null) {
+            httpConn.disconnect();
+        }
+    }
+
     protected String getBaseUrl() {
         return "https://api.crawlbase.com";
     }
@@ -261,13 +277,28 @@ public class API
     protected void extractHeaderFromMap(Map<String, String> map) {
         this.originalStatus = map.get("original_status");
         this.crawlbaseStatus = map.containsKey("cb_status") ? map.get("cb_status") : map.get("pc_status");
-        this.url = map.get("url");
+        if (map.get("url") != null) {
+            this.url = map.get("url");
+        }
     }
 
     protected void extractHeaderFromResponse(HttpURLConnection httpConn) {
         this.originalStatus = httpConn.getHeaderField("original_status");
         this.crawlbaseStatus = (null == httpConn.getHeaderField("cb_status")) ? httpConn.getHeaderField("pc_status") : httpConn.getHeaderField("cb_status");
-        this.url = httpConn.getHeaderField("url");
+        if (httpConn.getHeaderField("url") != null) {
+            this.url = httpConn.getHeaderField("url");
+        }
+    }
+
+    protected int parseRemainingRequests(String remainingRequests) {
+        if (remainingRequests == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(remainingRequests.trim());
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
     }
 
     protected String getResponseBody(HttpURLConnection httpConn) throws IOException {
@@ -298,6 +329,16 @@ public class API
         }
     }
 
+    private HttpURLConnection openConnection(URL uri) throws IOException {
+        HttpURLConnection httpConn = (HttpURLConnection) uri.openConnection();
+        this.connection = httpConn;
+        if (this.aborted) {
+            httpConn.disconnect();
+            throw new IOException(ABORTED);
+        }
+        return httpConn;
+    }
+
     private String encodeQueryValue(String queryValue) {
         try {
             return URLEncoder.encode(queryValue, "UTF-8");
@@ -0,0 +1,390 @@
+package com.crawlbase;
+
+import java.util.Set;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crawls the {@link CrawlRequest requests} it receives with the Crawling API and publishes a {@link CrawlResult result} for each one.
+ * Requests are only pulled from upstream while the downstream subscriber has outstanding demand,
+ * so the number of Crawlbase calls in flight never exceeds the demand nor the maximum concurrency.
+ * Results are published in the order the requests complete, not the order they were received;
+ * use {@link CrawlResult#getRequest() getRequest} to match a result to its request.
+ * A request that fails is published as a failed result instead of terminating the stream.
+ * Cancelling the subscription aborts the requests in flight.
+ * A CrawlProcessor supports a single subscriber.
+ *
+ * @author Crawlbase
+ */
+public class CrawlProcessor implements Flow.Processor<CrawlRequest, CrawlResult>
+{
+    private static final String INVALID_TOKEN = "Token is required";
+    private static final String INVALID_POOL = "Token pool is required";
+    private static final String INVALID_CONCURRENCY = "Max concurrency must be greater than zero";
+    private static final String INVALID_EXECUTOR = "Executor is required";
+    private static final String INVALID_DEMAND = "Requested demand must be greater than zero";
+    private static final String SINGLE_SUBSCRIBER = "CrawlProcessor supports a single subscriber";
+    private static final String REQUEST_FAILED = "Request failed";
+
+    private static final long UNKNOWN = -1;
+    private static final AtomicInteger PROCESSOR_COUNT = new AtomicInteger();
+
+    private final String token;
+    private final TokenPool pool;
+    private final int maxConcurrency;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final Object emitLock = new Object();
+    private final Set<API> active = new HashSet<API>();
+
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super CrawlResult> downstream;
+    private long demand;
+    private int inFlight;
+    private int upstreamPending;
+    private boolean upstreamDone;
+    private Throwable upstreamError;
+    private boolean terminated;
+    private volatile boolean cancelled;
+
+    /**
+     * @param token A Normal or Javascript token.
+     * @param maxConcurrency The maximum number of requests in flight.
+     */
+    public CrawlProcessor(String token, int maxConcurrency) {
+        this(token, null, maxConcurrency, null);
+    }
+
+    /**
+     * @param token A Normal or Javascript token.
+     * @param maxConcurrency The maximum number of requests in flight.
+     * @param executor Runs the requests. Needs at least maxConcurrency threads to reach full concurrency.
+     */
+    public CrawlProcessor(String token, int maxConcurrency, Executor executor) {
+        this(token, null, maxConcurrency, requireExecutor(executor));
+    }
+
+    /**
+     * @param pool The tokens to balance the requests across.
+     * @param maxConcurrency The maximum number of requests in flight.
+     */
+    public CrawlProcessor(TokenPool pool, int maxConcurrency) {
+        this(null, requirePool(pool), maxConcurrency, null);
+    }
+
+    /**
+     * @param pool The tokens to balance the requests across.
+     * @param maxConcurrency The maximum number of requests in flight.
+     * @param executor Runs the requests. Needs at least maxConcurrency threads to reach full concurrency.
+     */
+    public CrawlProcessor(TokenPool pool, int maxConcurrency, Executor executor) {
+        this(null, requirePool(pool), maxConcurrency, requireExecutor(executor));
+    }
+
+    private CrawlProcessor(String token, TokenPool pool, int maxConcurrency, Executor executor) {
+        if (pool == null && (token == null || token.isEmpty() || token.trim().isEmpty())) {
+            throw new RuntimeException(INVALID_TOKEN);
+        }
+        if (maxConcurrency <= 0) {
+            throw new RuntimeException(INVALID_CONCURRENCY);
+        }
+        this.token = token;
+        this.pool = pool;
+        this.maxConcurrency = maxConcurrency;
+        this.ownsExecutor = executor == null;
+        this.executor = executor == null ? createExecutor() : executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CrawlResult> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException();
+        }
+        synchronized (this) {
+            if (downstream == null) {
+                downstream = subscriber;
+                subscriber = null;
+            }
+        }
+        if (subscriber != null) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException(SINGLE_SUBSCRIBER));
+            return;
+        }
+        synchronized (emitLock) {
+            downstream.onSubscribe(new DownstreamSubscription());
+        }
+        requestUpstream();
+        tryTerminate();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        boolean accepted = false;
+        synchronized (this) {
+            if (upstream == null && !cancelled) {
+                upstream = subscription;
+                accepted = true;
+            }
+        }
+        if (!accepted) {
+            subscription.cancel();
+            return;
+        }
+        requestUpstream();
+    }
+
+    @Override
+    public void onNext(final CrawlRequest request) {
+        if (request == null) {
+            throw new NullPointerException();
+        }
+        synchronized (this) {
+            if (terminated || upstreamDone) {
+                return;
+            }
+            upstreamPending--;
+            inFlight++;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    crawl(request);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            complete(new CrawlResult(request.getUrl(), 0, null, null, null, describe(ree), request));
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            if (upstreamDone) {
+                return;
+            }
+            upstreamDone = true;
+            upstreamError = throwable;
+        }
+        tryTerminate();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            if (upstreamDone) {
+                return;
+            }
+            upstreamDone = true;
+        }
+        tryTerminate();
+    }
+
+    private void crawl(CrawlRequest request) {
+        if (cancelled) {
+            complete(null);
+            return;
+        }
+        TokenPool.Lease lease = null;
+        API api = null;
+        CrawlResult result = null;
+        try {
+            lease = pool == null ? null : pool.acquire(TokenPool.requiresJavascript(request.getOptions()));
+            api = new API(lease == null ? token : lease.getToken());
+            synchronized (this) {
+                active.add(api);
+            }
+            if (cancelled) {
+                api.abort();
+            }
+            api.get(request.getUrl(), request.getOptions());
+            result = CrawlResult.from(api, request);
+        } catch (RuntimeException re) {
+            result = api == null ? new CrawlResult(request.getUrl(), 0, null, null, null, describe(re), request) : CrawlResult.failed(api, describe(re), request);
+        } finally {
+            if (api != null) {
+                synchronized (this) {
+                    active.remove(api);
+                }
+            }
+            if (lease != null) {
+                lease.release(api == null ? 0 : api.getStatusCode(), UNKNOWN);
+            }
+        }
+        complete(result);
+    }
+
+    /**
+     * Publishes the result of a request, and only then stops counting it as in flight,
+     * so the terminal signal cannot overtake it.
+     */
+    private void complete(CrawlResult result) {
+        boolean emit = false;
+        synchronized (this) {
+            if (!terminated && result != null) {
+                emit = true;
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+            }
+        }
+        if (emit) {
+            synchronized (emitLock) {
+                if (!cancelled) {
+                    downstream.onNext(result);
+                }
+            }
+        }
+        synchronized (this) {
+            inFlight--;
+        }
+        requestUpstream();
+        tryTerminate();
+    }
+
+    private void requestUpstream() {
+        Flow.Subscription subscription = null;
+        long n = 0;
+        synchronized (this) {
+            if (upstream == null || downstream == null || upstreamDone || terminated) {
+                return;
+            }
+            n = Math.min(demand, maxConcurrency) - inFlight - upstreamPending;
+            if (n > 0) {
+                upstreamPending += n;
+                subscription = upstream;
+            }
+        }
+        if (subscription != null) {
+            subscription.request(n);
+        }
+    }
+
+    private void tryTerminate() {
+        Throwable error = null;
+        synchronized (this) {
+            if (terminated || downstream == null || !upstreamDone || inFlight > 0) {
+                return;
+            }
+            terminated = true;
+            error = upstreamError;
+        }
+        synchronized (emitLock) {
+            if (!cancelled) {
+                if (error != null) {
+                    downstream.onError(error);
+                } else {
+                    downstream.onComplete();
+                }
+            }
+        }
+        shutdownExecutor();
+    }
+
+    private void cancel() {
+        Flow.Subscription subscription = null;
+        ArrayList<API> aborted = null;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            terminated = true;
+            subscription = upstream;
+            aborted = new ArrayList<API>(active);
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        for (API api : aborted) {
+            api.abort();
+        }
+        shutdownExecutor();
+    }
+
+    private void shutdownExecutor() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private String describe(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : REQUEST_FAILED;
+    }
+
+    private ExecutorService createExecutor() {
+        final int processor = PROCESSOR_COUNT.incrementAndGet();
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, String.format("crawlbase-processor-%d-%d", processor, threadCount.incrementAndGet()));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private static TokenPool requirePool(TokenPool pool) {
+        if (pool == null) {
+            throw new RuntimeException(INVALID_POOL);
+        }
+        return pool;
+    }
+
+    private static Executor requireExecutor(Executor executor) {
+        if (executor == null) {
+            throw new RuntimeException(INVALID_EXECUTOR);
+        }
+        return executor;
+    }
+
+    private class DownstreamSubscription implements Flow.Subscription
+    {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                boolean active;
+                synchronized (CrawlProcessor.this) {
+                    active = !terminated;
+                }
+                CrawlProcessor.this.cancel();
+                if (active) {
+                    synchronized (emitLock) {
+                        downstream.onError(new IllegalArgumentException(INVALID_DEMAND));
+                    }
+                }
+                return;
+            }
+            synchronized (CrawlProcessor.this) {
+                if (terminated) {
+                    return;
+                }
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            requestUpstream();
+        }
+
+        @Override
+        public void cancel() {
+            CrawlProcessor.this.cancel();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.crawlbase;
+
+import java.util.Map;
+import java.util.HashMap;
+
+/**
+ * A url to crawl with its api parameters, as consumed by {@link CrawlProcessor CrawlProcessor}.
+ *
+ * @author Crawlbase
+ */
+public class CrawlRequest
+{
+    private static final String INVALID_URL = "URL is required";
+
+    private final String url;
+    private final Map<String, Object> options;
+
+    /**
+     * @param url This parameter is required for all calls
+     * @see <a href="https://crawlbase.com/docs/crawling-api/parameters/#url">url documentation</a>
+     */
+    public CrawlRequest(String url) {
+        this(url, null);
+    }
+
+    /**
+     * @param url This parameter is required for all calls
+     * @see <a href="https://crawlbase.com/docs/crawling-api/parameters/#url">url documentation</a>
+     *
+     * @param options Those are the api parameters
+     * @see <a href="https://crawlbase.com/docs/crawling-api/parameters">parameters documentation</a>
+     */
+    public CrawlRequest(String url, Map<String, Object> options) {
+        if (url == null || url.isEmpty() || url.trim().isEmpty()) {
+            throw new RuntimeException(INVALID_URL);
+        }
+        this.url = url;
+        this.options = options == null ? new HashMap<String, Object>() : new HashMap<String, Object>(options);
+    }
+
+    /**
+     * @return The url to crawl.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return A copy of the api parameters.
+     */
+    public Map<String, Object> getOptions() {
+        return new HashMap<String, Object>(options);
+    }
+}
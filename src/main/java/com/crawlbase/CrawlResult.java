@@ -0,0 +1,178 @@
+package com.crawlbase;
+
+/**
+ * Immutable snapshot of a Crawlbase response.
+ * {@link API API} instances are reused between requests, so take a snapshot with {@link #from(API) from} before handing the response to another thread.
+ *
+ * @author Crawlbase
+ */
+public class CrawlResult
+{
+    private static final String INVALID_API = "API is required";
+
+    private final String url;
+    private final int statusCode;
+    private final String originalStatus;
+    private final String crawlbaseStatus;
+    private final String body;
+    private final String error;
+    private final CrawlRequest request;
+    private final long timestamp;
+
+    /**
+     * @param url The url that was crawled.
+     * @param statusCode Http code response for the request.
+     * @param originalStatus The status response that Crawlbase received when crawling the url.
+     * @param crawlbaseStatus The Crawlbase (pc) status code.
+     * @param body The response body.
+     */
+    public CrawlResult(String url, int statusCode, String originalStatus, String crawlbaseStatus, String body) {
+        this(url, statusCode, originalStatus, crawlbaseStatus, body, null);
+    }
+
+    /**
+     * @param url The url that was crawled.
+     * @param statusCode Http code response for the request.
+     * @param originalStatus The status response that Crawlbase received when crawling the url.
+     * @param crawlbaseStatus The Crawlbase (pc) status code.
+     * @param body The response body.
+     * @param error The reason the request failed, null if it succeeded.
+     */
+    public CrawlResult(String url, int statusCode, String originalStatus, String crawlbaseStatus, String body, String error) {
+        this(url, statusCode, originalStatus, crawlbaseStatus, body, error, null);
+    }
+
+    /**
+     * @param url The url that was crawled.
+     * @param statusCode Http code response for the request.
+     * @param originalStatus The status response that Crawlbase received when crawling the url.
+     * @param crawlbaseStatus The Crawlbase (pc) status code.
+     * @param body The response body.
+     * @param error The reason the request failed, null if it succeeded.
+     * @param request The request that produced this result, null if unknown.
+     */
+    public CrawlResult(String url, int statusCode, String originalStatus, String crawlbaseStatus, String body, String error, CrawlRequest request) {
+        this.url = url;
+        this.statusCode = statusCode;
+        this.originalStatus = originalStatus;
+        this.crawlbaseStatus = crawlbaseStatus;
+        this.body = body;
+        this.error = error;
+        this.request = request;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Copies the response of the last request made with the given API.
+     * @param api An API that has completed a request.
+     * @return A snapshot of the response.
+     */
+    public static CrawlResult from(API api) {
+        return from(api, null);
+    }
+
+    /**
+     * Copies the response of the last request made with the given API.
+     * @param api An API that has completed a request.
+     * @param request The request that was made, kept on the result.
+     * @return A snapshot of the response.
+     */
+    public static CrawlResult from(API api, CrawlRequest request) {
+        if (api == null) {
+            throw new RuntimeException(INVALID_API);
+        }
+        return new CrawlResult(api.getUrl(), api.getStatusCode(), api.getOriginalStatus(), api.getCrawlbaseStatus(), api.getBody(), null, request);
+    }
+
+    /**
+     * Copies the response of a request made with the given API that failed.
+     * @param api An API whose last request failed.
+     * @param error The reason the request failed.
+     * @return A snapshot of the response.
+     */
+    public static CrawlResult failed(API api, String error) {
+        return failed(api, error, null);
+    }
+
+    /**
+     * Copies the response of a request made with the given API that failed.
+     * @param api An API whose last request failed.
+     * @param error The reason the request failed.
+     * @param request The request that was made, kept on the result.
+     * @return A snapshot of the response.
+     */
+    public static CrawlResult failed(API api, String error, CrawlRequest request) {
+        if (api == null) {
+            throw new RuntimeException(INVALID_API);
+        }
+        return new CrawlResult(api.getUrl(), api.getStatusCode(), api.getOriginalStatus(), api.getCrawlbaseStatus(), api.getBody(), error, request);
+    }
+
+    /**
+     * @return The original url that was sent in the request or the url of the redirect that Crawlbase followed.
+     * @see <a href="https://crawlbase.com/docs/crawling-api/response/#url">url documentation</a>
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return Http code response for the request.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return The status response that we (Crawlbase) receive when crawling the url sent in the request.
+     * @see <a href="https://crawlbase.com/docs/crawling-api/response/#original-status">original status documentation</a>
+     */
+    public String getOriginalStatus() {
+        return originalStatus;
+    }
+
+    /**
+     * @return The Crawlbase (pc) status code can be any status code and it's the code that ends up being valid.
+     * @see <a href="https://crawlbase.com/docs/crawling-api/response/#pc-status">pc status documentation</a>
+     */
+    public String getCrawlbaseStatus() {
+        return crawlbaseStatus;
+    }
+
+    /**
+     * @return JSON string or the html string of the page depending on the format parameter.
+     * @see <a href="https://crawlbase.com/docs/crawling-api/response/#body">body documentation</a>
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * @return The reason the request failed, null if it succeeded.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return Whether the request failed.
+     */
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    /**
+     * Unlike {@link #getUrl() getUrl}, which can be the url of a redirect, the request holds the url and parameters that were requested.
+     * @return The request that produced this result, null if unknown.
+     */
+    public CrawlRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return The time the snapshot was taken, in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,61 @@
+package com.crawlbase;
+
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes crawl results as newline delimited JSON to rolling <code>.ndjson.gz</code> files.
+ * Each line holds the <code>url</code>, <code>status_code</code>, <code>original_status</code>, <code>pc_status</code>, <code>timestamp</code> and <code>body</code> of one result, plus the <code>error</code> of a failed one.
+ *
+ * @author Crawlbase
+ */
+public class NdjsonResultSink extends ResultSink
+{
+    private static final String FILE_EXTENSION = ".ndjson.gz";
+    private static final int NEW_LINE = '\n';
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * @param directory The directory the files are written to. It is created if missing.
+     * @param prefix The file name prefix.
+     */
+    public NdjsonResultSink(String directory, String prefix) {
+        this(directory, prefix, DEFAULT_MAX_FILE_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param directory The directory the files are written to. It is created if missing.
+     * @param prefix The file name prefix.
+     * @param maxFileSize The compressed size in bytes after which a new file is started.
+     * @param batchSize The maximum number of results committed by a single sync to disk.
+     */
+    public NdjsonResultSink(String directory, String prefix, long maxFileSize, int batchSize) {
+        super(directory, prefix, maxFileSize, batchSize);
+    }
+
+    @Override
+    protected String getFileExtension() {
+        return FILE_EXTENSION;
+    }
+
+    @Override
+    protected void writeRecord(OutputStream out, CrawlResult result) throws IOException {
+        Map<String, Object> record = new LinkedHashMap<String, Object>();
+        record.put("url", result.getUrl());
+        record.put("status_code", result.getStatusCode());
+        record.put("original_status", result.getOriginalStatus());
+        record.put("pc_status", result.getCrawlbaseStatus());
+        record.put("timestamp", result.getTimestamp());
+        record.put("body", result.getBody());
+        if (result.isFailed()) {
+            record.put("error", result.getError());
+        }
+        out.write(mapper.writeValueAsBytes(record));
+        out.write(NEW_LINE);
+    }
+}
@@ -0,0 +1,153 @@
+package com.crawlbase;
+
+import java.util.Map;
+
+/**
+ * Makes Crawlbase requests with tokens leased from a {@link TokenPool TokenPool}.
+ * Requests using Javascript parameters are routed to Javascript tokens, every other request to Normal tokens.
+ * Every request runs on its own API instance, which is returned once the request completes, so a PooledAPI can be shared between threads.
+ *
+ * @author Crawlbase
+ */
+public class PooledAPI
+{
+    private static final String INVALID_POOL = "Token pool is required";
+    private static final int HTTP_OK = 200;
+    private static final long UNKNOWN = -1;
+
+    private final TokenPool pool;
+
+    /**
+     * @param pool The tokens to balance the requests across.
+     */
+    public PooledAPI(TokenPool pool) {
+        if (pool == null) {
+            throw new RuntimeException(INVALID_POOL);
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * @return The token pool used by this client.
+     */
+    public TokenPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Makes a GET request to the Crawling API.
+     * @param url This parameter is required for all calls
+     * @param options Those are the api parameters
+     * @return The API that made the request.
+     * @see API#get(String, Map)
+     */
+    public API get(String url, Map<String, Object> options) {
+        TokenPool.Lease lease = pool.acquire(TokenPool.requiresJavascript(options));
+        API api = new API(lease.getToken());
+        try {
+            api.get(url, options);
+        } finally {
+            lease.release(api.getStatusCode(), UNKNOWN);
+        }
+        return api;
+    }
+
+    /**
+     * Makes a GET request to the Crawling API.
+     * @param url This parameter is required for all calls
+     * @return The API that made the request.
+     */
+    public API get(String url) {
+        return get(url, null);
+    }
+
+    /**
+     * Makes a POST request to the Crawling API.
+     * @param url This parameter is required for all calls
+     * @param data The data that you want to send via POST
+     * @param options Those are the api parameters
+     * @return The API that made the request.
+     * @see API#post(String, Map, Map)
+     */
+    public API post(String url, Map<String, Object> data, Map<String, Object> options) {
+        TokenPool.Lease lease = pool.acquire(TokenPool.requiresJavascript(options));
+        API api = new API(lease.getToken());
+        try {
+            api.post(url, data, options);
+        } finally {
+            lease.release(api.getStatusCode(), UNKNOWN);
+        }
+        return api;
+    }
+
+    /**
+     * Makes a POST request to the Crawling API.
+     * @param url This parameter is required for all calls
+     * @param data The data that you want to send via POST
+     * @return The API that made the request.
+     */
+    public API post(String url, Map<String, Object> data) {
+        return post(url, data, null);
+    }
+
+    /**
+     * Makes a GET request to the Scraper API with a Normal token.
+     * @param url This parameter is required for all calls
+     * @param options Those are the api parameters
+     * @return The ScraperAPI that made the request.
+     * @see <a href="https://crawlbase.com/docs/scraper-api/parameters">parameters documentation</a>
+     */
+    public ScraperAPI scrape(String url, Map<String, Object> options) {
+        TokenPool.Lease lease = pool.acquire(false);
+        ScraperAPI scraperApi = new ScraperAPI(lease.getToken());
+        boolean completed = false;
+        try {
+            scraperApi.get(url, options);
+            completed = true;
+        } finally {
+            lease.release(scraperApi.getStatusCode(), getRemainingRequests(completed, scraperApi.getStatusCode(), scraperApi.getRemainingRequests()));
+        }
+        return scraperApi;
+    }
+
+    /**
+     * Makes a GET request to the Screenshots API with a Normal token.
+     * @param url This parameter is required for all calls
+     * @param options Those are the api parameters
+     * @return The ScreenshotsAPI that made the request.
+     * @see <a href="https://crawlbase.com/docs/screenshots-api/parameters">parameters documentation</a>
+     */
+    public ScreenshotsAPI screenshot(String url, Map<String, Object> options) {
+        TokenPool.Lease lease = pool.acquire(false);
+        ScreenshotsAPI screenshotsApi = new ScreenshotsAPI(lease.getToken());
+        boolean completed = false;
+        try {
+            screenshotsApi.get(url, options);
+            completed = true;
+        } finally {
+            lease.release(screenshotsApi.getStatusCode(), getRemainingRequests(completed, screenshotsApi.getStatusCode(), screenshotsApi.getRemainingRequests()));
+        }
+        return screenshotsApi;
+    }
+
+    /**
+     * Makes a request to the Leads API with a Normal token.
+     * @param domain
+     * @return The LeadsAPI that made the request.
+     * @see <a href="https://crawlbase.com/docs/leads-api/parameters/#domain">domain documentation</a>
+     */
+    public LeadsAPI leads(String domain) {
+        TokenPool.Lease lease = pool.acquire(false);
+        LeadsAPI leadsApi = new LeadsAPI(lease.getToken());
+        try {
+            leadsApi.get(domain);
+        } finally {
+            lease.release(leadsApi.getStatusCode(), UNKNOWN);
+        }
+        return leadsApi;
+    }
+
+    private long getRemainingRequests(boolean completed, int statusCode, int remainingRequests) {
+        return completed && statusCode == HTTP_OK ? remainingRequests : UNKNOWN;
+    }
+}
@@ -0,0 +1,301 @@
+package com.crawlbase;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persists crawl results to rolling gzip files from a dedicated writer thread.
+ * Calls to {@link #write(API) write} only enqueue the result, so crawl threads never wait on disk I/O.
+ * The writer thread drains the queue in batches and commits each batch with a single sync to disk.
+ * Files are written with a <code>.part</code> suffix that is removed once the file is complete.
+ *
+ * @author Crawlbase
+ */
+public abstract class ResultSink implements Closeable
+{
+    private static final String INVALID_DIRECTORY = "Directory is required";
+    private static final String INVALID_PREFIX = "Prefix is required";
+    private static final String INVALID_RESULT = "Result is required";
+    private static final String SINK_CLOSED = "Result sink is closed";
+
+    private static final String PART_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final CrawlResult END_OF_RESULTS = new CrawlResult(null, 0, null, null, null);
+
+    public static final long DEFAULT_MAX_FILE_SIZE = 128L * 1024 * 1024;
+    public static final int DEFAULT_BATCH_SIZE = 512;
+
+    private final File directory;
+    private final String prefix;
+    private final long maxFileSize;
+    private final int batchSize;
+    private final long startTime;
+    private final BlockingQueue<CrawlResult> queue;
+    private final Thread writer;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private volatile boolean closed;
+    private volatile Exception failure;
+
+    private int fileSequence;
+    private File currentFile;
+    private FileOutputStream currentFileStream;
+    private OutputStream currentStream;
+
+    /**
+     * @param directory The directory the files are written to. It is created if missing.
+     * @param prefix The file name prefix.
+     * @param maxFileSize The compressed size in bytes after which a new file is started.
+     * @param batchSize The maximum number of results committed by a single sync to disk.
+     */
+    protected ResultSink(String directory, String prefix, long maxFileSize, int batchSize) {
+        if (directory == null || directory.trim().isEmpty()) {
+            throw new RuntimeException(INVALID_DIRECTORY);
+        }
+        if (prefix == null || prefix.trim().isEmpty()) {
+            throw new RuntimeException(INVALID_PREFIX);
+        }
+        this.directory = new File(directory);
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            throw new RuntimeException(String.format("Could not create directory %s", directory));
+        }
+        this.prefix = prefix;
+        this.maxFileSize = maxFileSize > 0 ? maxFileSize : DEFAULT_MAX_FILE_SIZE;
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        this.startTime = System.currentTimeMillis();
+        this.queue = new LinkedBlockingQueue<CrawlResult>();
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, String.format("crawlbase-%s-sink", prefix));
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Enqueues the response of the last request made with the given API.
+     * @param api An API that has completed a request.
+     */
+    public void write(API api) {
+        write(CrawlResult.from(api));
+    }
+
+    /**
+     * Enqueues a result. Never blocks on disk I/O.
+     * @param result The result to persist.
+     */
+    public void write(CrawlResult result) {
+        if (result == null) {
+            throw new RuntimeException(INVALID_RESULT);
+        }
+        validate(result);
+        if (failure != null) {
+            throwFailure();
+        }
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new RuntimeException(SINK_CLOSED);
+            }
+            queue.offer(result);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of results waiting to be written.
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Writes the remaining results, completes the current file and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.offer(END_OF_RESULTS);
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throwFailure();
+        }
+    }
+
+    /**
+     * @return The file extension, including the compression suffix.
+     */
+    protected abstract String getFileExtension();
+
+    /**
+     * Writes a single result to the uncompressed stream.
+     * @param out The stream to write to. Must not be closed.
+     * @param result The result to write.
+     */
+    protected abstract void writeRecord(OutputStream out, CrawlResult result) throws IOException;
+
+    /**
+     * Rejects results that cannot be written, before they are enqueued.
+     * @param result The result to check.
+     */
+    protected void validate(CrawlResult result) {
+    }
+
+    /**
+     * Called once at the start of each file, before any record.
+     * @param out The stream to write to. Must not be closed.
+     */
+    protected void writeFileHeader(OutputStream out) throws IOException {
+    }
+
+    /**
+     * @return true to compress every record as its own gzip member, false to compress every batch as one member.
+     */
+    protected boolean isCompressedPerRecord() {
+        return false;
+    }
+
+    private void writeLoop() {
+        List<CrawlResult> batch = new ArrayList<CrawlResult>(batchSize);
+        boolean done = false;
+        try {
+            while (!done) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                int end = batch.indexOf(END_OF_RESULTS);
+                if (end >= 0) {
+                    batch.subList(end, batch.size()).clear();
+                    done = true;
+                }
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+                batch.clear();
+            }
+            closeFile(true);
+        } catch (IOException ioe) {
+            failure = ioe;
+            try { closeFile(false); } catch (IOException e) {}
+        } catch (RuntimeException re) {
+            failure = re;
+            try { closeFile(false); } catch (IOException e) {}
+        } catch (InterruptedException ie) {
+            try { closeFile(false); } catch (IOException e) {}
+        }
+    }
+
+    private void throwFailure() {
+        Exception e = failure;
+        throw new RuntimeException(e.getMessage() != null ? e.getMessage() : e.toString(), e);
+    }
+
+    private void writeBatch(List<CrawlResult> batch) throws IOException {
+        OutputStream out = openFile();
+        if (isCompressedPerRecord()) {
+            for (CrawlResult result : batch) {
+                GZIPOutputStream gzip = new GZIPOutputStream(new MemberOutputStream(out));
+                writeRecord(gzip, result);
+                gzip.close();
+            }
+        } else {
+            GZIPOutputStream gzip = new GZIPOutputStream(new MemberOutputStream(out), BUFFER_SIZE);
+            for (CrawlResult result : batch) {
+                writeRecord(gzip, result);
+            }
+            gzip.close();
+        }
+        out.flush();
+        currentFileStream.getChannel().force(false);
+        if (currentFileStream.getChannel().position() >= maxFileSize) {
+            closeFile(true);
+        }
+    }
+
+    private OutputStream openFile() throws IOException {
+        if (currentStream != null) {
+            return currentStream;
+        }
+        String name = String.format("%s-%d-%05d%s%s", prefix, startTime, fileSequence++, getFileExtension(), PART_SUFFIX);
+        currentFile = new File(directory, name);
+        currentFileStream = new FileOutputStream(currentFile);
+        currentStream = new BufferedOutputStream(currentFileStream, BUFFER_SIZE);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        writeFileHeader(header);
+        if (header.size() > 0) {
+            GZIPOutputStream gzip = new GZIPOutputStream(new MemberOutputStream(currentStream));
+            header.writeTo(gzip);
+            gzip.close();
+        }
+        return currentStream;
+    }
+
+    private void closeFile(boolean complete) throws IOException {
+        if (currentStream == null) {
+            return;
+        }
+        File partFile = currentFile;
+        try {
+            currentStream.close();
+        } finally {
+            currentStream = null;
+            currentFileStream = null;
+            currentFile = null;
+        }
+        if (!complete) {
+            return;
+        }
+        String name = partFile.getName();
+        File completeFile = new File(directory, name.substring(0, name.length() - PART_SUFFIX.length()));
+        if (!partFile.renameTo(completeFile)) {
+            throw new IOException(String.format("Could not rename %s", partFile.getPath()));
+        }
+    }
+
+    /**
+     * Lets a gzip member be closed, releasing its deflater, without closing the file underneath.
+     */
+    private static class MemberOutputStream extends FilterOutputStream
+    {
+        MemberOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
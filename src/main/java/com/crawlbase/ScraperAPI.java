@@ -17,7 +17,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
  */
 public class ScraperAPI extends API
 {
-    private int remainingRequests;
+    private int remainingRequests = -1;
 
     /**
      * @param token
@@ -30,7 +30,7 @@ public class ScraperAPI extends API
     }
 
     /**
-     * @return The number of requests that are left in your subscription plan.
+     * @return The number of requests that are left in your subscription plan, or -1 if the last response did not report it.
      * @see <a href="https://crawlbase.com/docs/scraper-api/response/#remaining-requests">remaining requests documentation</a>
      */
     public int getRemainingRequests() {
@@ -57,7 +57,7 @@ public class ScraperAPI extends API
 
     @Override
     protected void extractHeaderFromMap(Map<String, String> map) {
-        this.remainingRequests = Integer.parseInt(map.get("remaining_requests"));
+        this.remainingRequests = parseRemainingRequests(map.get("remaining_requests"));
     }
 
     @Override
@@ -29,7 +29,7 @@ public class ScreenshotsAPI extends API {
 
     private String screenshotPath;
     private boolean success;
-    private int remainingRequests;
+    private int remainingRequests = -1;
     private String screenshotUrl;
 
     /**
@@ -58,8 +58,8 @@ public class ScreenshotsAPI extends API {
     }
 
     /**
-     * @return JSON string or the html string of the page depending on the option you selected with the format parameter (default is html).
-     * @see <a href="https://crawlbase.com/docs/crawling-api/response/#body">body documentation</a>
+     * @return The number of requests that are left in your subscription plan, or -1 if the last response did not report it.
+     * @see <a href="https://crawlbase.com/docs/screenshots-api/response/#remaining-requests">remaining requests documentation</a>
      */
     public int getRemainingRequests() {
         return remainingRequests;
@@ -123,7 +123,7 @@ public class ScreenshotsAPI extends API {
 
     @Override
     protected void extractHeaderFromResponse(HttpURLConnection httpConn) {
-        this.remainingRequests = Integer.parseInt(httpConn.getHeaderField("remaining_requests"));
+        this.remainingRequests = parseRemainingRequests(httpConn.getHeaderField("remaining_requests"));
         this.success = httpConn.getHeaderField("success").equals("true");
         this.screenshotUrl = httpConn.getHeaderField("screenshot_url");
     }
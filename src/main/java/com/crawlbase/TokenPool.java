@@ -0,0 +1,309 @@
+package com.crawlbase;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balances requests across several Normal and Javascript tokens.
+ * Each request leases the least loaded token relative to its weight, ties being shared by weighted round-robin, honouring the per token rate limit,
+ * skipping tokens that are cooling down after a 401 or 429 response and tokens that have no remaining requests.
+ * A token that has run out of requests is tried again after the quota recheck delay.
+ *
+ * @author Crawlbase
+ */
+public class TokenPool
+{
+    private static final String INVALID_TOKEN = "Token is required";
+    private static final String INVALID_WEIGHT = "Weight must be greater than zero";
+    private static final String NO_TOKEN = "No %s token in the pool";
+    private static final String NO_REMAINING_REQUESTS = "No %s token has remaining requests";
+    private static final String UNKNOWN_TOKEN = "Token is not in the pool";
+    private static final String INTERRUPTED = "Interrupted while waiting for a token";
+
+    private static final String NORMAL = "normal";
+    private static final String JAVASCRIPT = "javascript";
+    private static final int HTTP_UNAUTHORIZED = 401;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final long UNKNOWN = -1;
+
+    /**
+     * Crawling API parameters that are only available with a Javascript token.
+     * @see <a href="https://crawlbase.com/docs/crawling-api/parameters">parameters documentation</a>
+     */
+    private static final List<String> JAVASCRIPT_OPTIONS = Arrays.asList(
+        "page_wait", "ajax_wait", "css_click_selector", "scroll", "scroll_interval", "screenshot", "screenshot_wait");
+
+    public static final long DEFAULT_COOLDOWN_MILLIS = 60 * 1000;
+    public static final long DEFAULT_QUOTA_RECHECK_MILLIS = 60 * 60 * 1000;
+
+    private final List<Entry> entries = new ArrayList<Entry>();
+    private long cooldownNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_COOLDOWN_MILLIS);
+    private long quotaRecheckNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_QUOTA_RECHECK_MILLIS);
+
+    /**
+     * Adds a token with a weight of 1 and no rate limit.
+     * @param token A Normal or Javascript token.
+     * @param javascript Whether the token is a Javascript token.
+     */
+    public void addToken(String token, boolean javascript) {
+        addToken(token, javascript, 1, 0);
+    }
+
+    /**
+     * Adds a token.
+     * @param token A Normal or Javascript token.
+     * @param javascript Whether the token is a Javascript token.
+     * @param weight The share of requests this token receives relative to the other tokens of the same kind.
+     * @param maxRequestsPerSecond The maximum number of requests started per second with this token, 0 for no limit.
+     */
+    public synchronized void addToken(String token, boolean javascript, int weight, int maxRequestsPerSecond) {
+        if (token == null || token.isEmpty() || token.trim().isEmpty()) {
+            throw new RuntimeException(INVALID_TOKEN);
+        }
+        if (weight <= 0) {
+            throw new RuntimeException(INVALID_WEIGHT);
+        }
+        long intervalNanos = maxRequestsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxRequestsPerSecond : 0;
+        entries.add(new Entry(token, javascript, weight, intervalNanos));
+    }
+
+    /**
+     * @param cooldownMillis How long a token is left unused after a 401 or 429 response.
+     */
+    public synchronized void setCooldown(long cooldownMillis) {
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+    }
+
+    /**
+     * @param quotaRecheckMillis How long a token that has run out of requests is skipped before it is tried again, in case the plan was renewed.
+     */
+    public synchronized void setQuotaRecheck(long quotaRecheckMillis) {
+        this.quotaRecheckNanos = TimeUnit.MILLISECONDS.toNanos(quotaRecheckMillis);
+    }
+
+    /**
+     * Overrides the remaining requests known for a token, for instance after its plan was renewed.
+     * @param token A token in the pool.
+     * @param remainingRequests The number of requests left, -1 when unknown.
+     */
+    public synchronized void setRemainingRequests(String token, long remainingRequests) {
+        boolean found = false;
+        for (Entry entry : entries) {
+            if (entry.token.equals(token)) {
+                entry.remainingRequests = remainingRequests < 0 ? UNKNOWN : remainingRequests;
+                entry.exhaustedAt = System.nanoTime();
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new RuntimeException(UNKNOWN_TOKEN);
+        }
+        notifyAll();
+    }
+
+    /**
+     * @param options The api parameters of a request.
+     * @return Whether the request needs a Javascript token.
+     */
+    public static boolean requiresJavascript(Map<String, Object> options) {
+        if (options == null) {
+            return false;
+        }
+        for (String key : options.keySet()) {
+            if (JAVASCRIPT_OPTIONS.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Leases a token, waiting while every token of the requested kind is rate limited or cooling down.
+     * The lease must be released once the request completes.
+     * @param javascript Whether a Javascript token is required.
+     * @return The leased token.
+     */
+    public synchronized Lease acquire(boolean javascript) {
+        String kind = javascript ? JAVASCRIPT : NORMAL;
+        while (true) {
+            long now = System.nanoTime();
+            List<Entry> ready = new ArrayList<Entry>();
+            boolean found = false;
+            boolean usable = false;
+            long readyIn = Long.MAX_VALUE;
+            for (Entry entry : entries) {
+                if (entry.javascript != javascript) {
+                    continue;
+                }
+                found = true;
+                if (entry.remainingRequests == 0) {
+                    entry.currentWeight = 0;
+                    if (now - entry.exhaustedAt < quotaRecheckNanos) {
+                        continue;
+                    }
+                    entry.remainingRequests = UNKNOWN;
+                }
+                usable = true;
+                long waitNanos = Math.max(entry.cooldownUntil - now, entry.nextRequestAt - now);
+                if (waitNanos > 0) {
+                    entry.currentWeight = 0;
+                    readyIn = Math.min(readyIn, waitNanos);
+                    continue;
+                }
+                ready.add(entry);
+            }
+            Entry best = select(ready);
+            if (best != null) {
+                best.inFlight++;
+                best.nextRequestAt = now + best.intervalNanos;
+                return new Lease(best);
+            }
+            if (!found) {
+                throw new RuntimeException(String.format(NO_TOKEN, kind));
+            }
+            if (!usable) {
+                throw new RuntimeException(String.format(NO_REMAINING_REQUESTS, kind));
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, readyIn);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(INTERRUPTED);
+            }
+        }
+    }
+
+    /**
+     * @param javascript Whether to count Javascript tokens.
+     * @return The sum of the last known remaining requests of the tokens of that kind, or -1 when unknown for any of them.
+     */
+    public synchronized long getRemainingRequests(boolean javascript) {
+        long total = 0;
+        for (Entry entry : entries) {
+            if (entry.javascript != javascript) {
+                continue;
+            }
+            if (entry.remainingRequests == UNKNOWN) {
+                return UNKNOWN;
+            }
+            total += entry.remainingRequests;
+        }
+        return total;
+    }
+
+    /**
+     * Picks the token with the fewest requests in flight relative to its weight,
+     * breaking ties between those tokens with smooth weighted round-robin.
+     * Tokens that were not ready in the previous round start again from zero,
+     * so a token returning from a cooldown does not receive a catch-up burst.
+     */
+    private Entry select(List<Entry> ready) {
+        Entry leastLoaded = null;
+        for (Entry entry : ready) {
+            if (leastLoaded == null || (long) entry.inFlight * leastLoaded.weight < (long) leastLoaded.inFlight * entry.weight) {
+                leastLoaded = entry;
+            }
+        }
+        if (leastLoaded == null) {
+            return null;
+        }
+        Entry best = null;
+        long totalWeight = 0;
+        for (Entry entry : ready) {
+            if ((long) entry.inFlight * leastLoaded.weight != (long) leastLoaded.inFlight * entry.weight) {
+                continue;
+            }
+            entry.currentWeight += entry.weight;
+            totalWeight += entry.weight;
+            if (best == null || entry.currentWeight > best.currentWeight) {
+                best = entry;
+            }
+        }
+        best.currentWeight -= totalWeight;
+        return best;
+    }
+
+    private synchronized void release(Entry entry, int statusCode, long remainingRequests) {
+        entry.inFlight--;
+        if (statusCode == HTTP_UNAUTHORIZED || statusCode == HTTP_TOO_MANY_REQUESTS) {
+            entry.cooldownUntil = System.nanoTime() + cooldownNanos;
+        }
+        if (remainingRequests >= 0) {
+            entry.remainingRequests = remainingRequests;
+            if (remainingRequests == 0) {
+                entry.exhaustedAt = System.nanoTime();
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * A token leased from the pool for a single request.
+     */
+    public class Lease
+    {
+        private final Entry entry;
+        private boolean released;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * @return The authentication token to use for the request.
+         */
+        public String getToken() {
+            return entry.token;
+        }
+
+        /**
+         * @return Whether the token is a Javascript token.
+         */
+        public boolean isJavascript() {
+            return entry.javascript;
+        }
+
+        /**
+         * Returns the token to the pool.
+         * @param statusCode Http code response for the request, 0 if the request failed without one.
+         * @param remainingRequests The remaining requests reported by the response, -1 when unknown.
+         */
+        public void release(int statusCode, long remainingRequests) {
+            synchronized (TokenPool.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                TokenPool.this.release(entry, statusCode, remainingRequests);
+            }
+        }
+    }
+
+    private static class Entry
+    {
+        private final String token;
+        private final boolean javascript;
+        private final int weight;
+        private final long intervalNanos;
+
+        private int inFlight;
+        private long currentWeight;
+        private long nextRequestAt;
+        private long cooldownUntil;
+        private long remainingRequests = UNKNOWN;
+        private long exhaustedAt;
+
+        Entry(String token, boolean javascript, int weight, long intervalNanos) {
+            this.token = token;
+            this.javascript = javascript;
+            this.weight = weight;
+            this.intervalNanos = intervalNanos;
+            long now = System.nanoTime();
+            this.nextRequestAt = now;
+            this.cooldownUntil = now;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.crawlbase;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.TimeZone;
+import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes crawl results as WARC/1.0 <code>resource</code> records to rolling <code>.warc.gz</code> files.
+ * Every record is compressed as its own gzip member, and every file starts with a <code>warcinfo</code> record.
+ * Results without a url are rejected by {@link #write(CrawlResult) write}, since every record needs a <code>WARC-Target-URI</code>.
+ * The Crawlbase statuses are stored in the <code>Crawlbase-Original-Status</code> and <code>Crawlbase-PC-Status</code> headers,
+ * and the reason a request failed in the <code>Crawlbase-Error</code> header.
+ * @see <a href="https://iipc.github.io/warc-specifications/specifications/warc-format/warc-1.0/">WARC 1.0 specification</a>
+ *
+ * @author Crawlbase
+ */
+public class WarcResultSink extends ResultSink
+{
+    private static final String INVALID_URL = "URL is required for a WARC record";
+
+    private static final String FILE_EXTENSION = ".warc.gz";
+    private static final String WARC_VERSION = "WARC/1.0";
+    private static final String CRLF = "\r\n";
+    private static final String DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+    private static final String CONTENT_TYPE_HTML = "text/html; charset=UTF-8";
+    private static final String CONTENT_TYPE_JSON = "application/json";
+    private static final String CONTENT_TYPE_WARC_FIELDS = "application/warc-fields";
+
+    /**
+     * @param directory The directory the files are written to. It is created if missing.
+     * @param prefix The file name prefix.
+     */
+    public WarcResultSink(String directory, String prefix) {
+        this(directory, prefix, DEFAULT_MAX_FILE_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param directory The directory the files are written to. It is created if missing.
+     * @param prefix The file name prefix.
+     * @param maxFileSize The compressed size in bytes after which a new file is started.
+     * @param batchSize The maximum number of results committed by a single sync to disk.
+     */
+    public WarcResultSink(String directory, String prefix, long maxFileSize, int batchSize) {
+        super(directory, prefix, maxFileSize, batchSize);
+    }
+
+    @Override
+    protected String getFileExtension() {
+        return FILE_EXTENSION;
+    }
+
+    @Override
+    protected boolean isCompressedPerRecord() {
+        return true;
+    }
+
+    @Override
+    protected void validate(CrawlResult result) {
+        if (result.getUrl() == null || result.getUrl().trim().isEmpty()) {
+            throw new RuntimeException(INVALID_URL);
+        }
+    }
+
+    @Override
+    protected void writeFileHeader(OutputStream out) throws IOException {
+        byte[] content = String.format("software: crawlbase-java%sformat: WARC File Format 1.0%s", CRLF, CRLF).getBytes(StandardCharsets.UTF_8);
+        StringBuilder header = new StringBuilder();
+        appendField(header, "WARC-Type", "warcinfo");
+        appendField(header, "WARC-Record-ID", generateRecordId());
+        appendField(header, "WARC-Date", formatDate(System.currentTimeMillis()));
+        appendField(header, "Content-Type", CONTENT_TYPE_WARC_FIELDS);
+        appendField(header, "Content-Length", Integer.toString(content.length));
+        writeRecord(out, header, content);
+    }
+
+    @Override
+    protected void writeRecord(OutputStream out, CrawlResult result) throws IOException {
+        byte[] content = result.getBody() == null ? new byte[0] : result.getBody().getBytes(StandardCharsets.UTF_8);
+        StringBuilder header = new StringBuilder();
+        appendField(header, "WARC-Type", "resource");
+        appendField(header, "WARC-Record-ID", generateRecordId());
+        appendField(header, "WARC-Date", formatDate(result.getTimestamp()));
+        appendField(header, "WARC-Target-URI", result.getUrl());
+        appendField(header, "Content-Type", getContentType(result.getBody()));
+        appendField(header, "Content-Length", Integer.toString(content.length));
+        appendField(header, "Crawlbase-Status-Code", Integer.toString(result.getStatusCode()));
+        appendField(header, "Crawlbase-Original-Status", result.getOriginalStatus());
+        appendField(header, "Crawlbase-PC-Status", result.getCrawlbaseStatus());
+        appendField(header, "Crawlbase-Error", result.getError());
+        writeRecord(out, header, content);
+    }
+
+    private void writeRecord(OutputStream out, StringBuilder header, byte[] content) throws IOException {
+        out.write(WARC_VERSION.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF.getBytes(StandardCharsets.UTF_8));
+        out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF.getBytes(StandardCharsets.UTF_8));
+        out.write(content);
+        out.write((CRLF + CRLF).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void appendField(StringBuilder header, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        header.append(name).append(": ").append(value.replace("\r", "").replace("\n", "")).append(CRLF);
+    }
+
+    private String getContentType(String body) {
+        if (body != null) {
+            String trimmed = body.trim();
+            if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+                return CONTENT_TYPE_JSON;
+            }
+        }
+        return CONTENT_TYPE_HTML;
+    }
+
+    private String generateRecordId() {
+        return String.format("<urn:uuid:%s>", UUID.randomUUID().toString());
+    }
+
+    private String formatDate(long timestamp) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_PATTERN);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return dateFormat.format(new Date(timestamp));
+    }
+}